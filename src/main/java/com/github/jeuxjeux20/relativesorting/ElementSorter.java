@@ -34,6 +34,53 @@ public class ElementSorter<T> {
         return sortElements(context);
     }
 
+    public List<List<T>> sortIntoLayers(List<T> elements) {
+        return sortIntoLayers(elements, SortingConfiguration.DEFAULT);
+    }
+
+    /**
+     * Sorts the elements into successive layers, where all the elements of a layer only need to be
+     * after elements of previous layers. Elements of the same layer don't depend on each other, and
+     * are sorted by position, then by list order.
+     * <p>
+     * When {@link SortingConfiguration#isImplicitListOrder()} is {@code false}, elements without any
+     * order constraints don't need to keep their relative list order, so they all end up in the first layer
+     * unless another element must be before them.
+     *
+     * @param elements      the elements to sort
+     * @param configuration the configuration to use
+     * @return the layers of elements, in order
+     */
+    public List<List<T>> sortIntoLayers(List<T> elements, SortingConfiguration configuration) {
+        if (elements.isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        SortContext context = createSortContext(elements, configuration);
+
+        ElementGraphFactory graphFactory = new ElementGraphFactory(context);
+        context.graph = graphFactory.createGraph();
+
+        return sortElementsIntoLayers(context);
+    }
+
+    public OrderDiff<T> sortDiff(List<T> previousResult, List<T> elements) {
+        return sortDiff(previousResult, elements, SortingConfiguration.DEFAULT);
+    }
+
+    /**
+     * Sorts the elements, and returns the changes between the previous result and the new one.
+     *
+     * @param previousResult the previous result of a sort
+     * @param elements       the elements to sort
+     * @param configuration  the configuration to use
+     * @return the changes to apply to the previous result to get the new one
+     * @see OrderDiff#applyTo(List)
+     */
+    public OrderDiff<T> sortDiff(List<T> previousResult, List<T> elements, SortingConfiguration configuration) {
+        return OrderDiff.between(previousResult, sort(elements, configuration));
+    }
+
     private SortContext createSortContext(List<T> elements, SortingConfiguration configuration) {
         ImmutableBiMap<T, OrderedElement<? extends T>> orderedElements = createOrderedElements(elements, configuration);
 
@@ -79,23 +126,63 @@ public class ElementSorter<T> {
             return context.elements;
         }
 
-        Comparator<T> listPositionComparator = new ElementListPositionComparator(context);
         TopologicalOrderIterator<T, DefaultEdge> topologicalIterator =
-                new TopologicalOrderIterator<>(context.graph, (a, b) -> {
-                    int aPosition = findPosition(context, a);
-                    int bPosition = findPosition(context, b);
-
-                    int positionComparison = Integer.compare(aPosition, bPosition);
-                    if (positionComparison != 0) {
-                        return positionComparison;
-                    } else {
-                        return listPositionComparator.compare(a, b);
-                    }
-                });
+                new TopologicalOrderIterator<>(context.graph, createElementComparator(context));
 
         return ImmutableList.copyOf(topologicalIterator);
     }
 
+    private List<List<T>> sortElementsIntoLayers(SortContext context) {
+        Comparator<T> comparator = createElementComparator(context);
+        ElementGraph graph = context.graph;
+
+        Map<T, Integer> inDegrees = new HashMap<>();
+        List<T> layer = new ArrayList<>();
+        for (T element : context.elements) {
+            int inDegree = graph.inDegreeOf(element);
+            if (inDegree == 0) {
+                layer.add(element);
+            } else {
+                inDegrees.put(element, inDegree);
+            }
+        }
+
+        ImmutableList.Builder<List<T>> layers = ImmutableList.builder();
+        while (!layer.isEmpty()) {
+            layer.sort(comparator);
+            layers.add(ImmutableList.copyOf(layer));
+
+            List<T> nextLayer = new ArrayList<>();
+            for (T element : layer) {
+                for (DefaultEdge edge : graph.outgoingEdgesOf(element)) {
+                    T successor = graph.getEdgeTarget(edge);
+                    if (inDegrees.merge(successor, -1, Integer::sum) == 0) {
+                        nextLayer.add(successor);
+                    }
+                }
+            }
+            layer = nextLayer;
+        }
+
+        return layers.build();
+    }
+
+    private Comparator<T> createElementComparator(SortContext context) {
+        Comparator<T> listPositionComparator = new ElementListPositionComparator(context);
+
+        return (a, b) -> {
+            int aPosition = findPosition(context, a);
+            int bPosition = findPosition(context, b);
+
+            int positionComparison = Integer.compare(aPosition, bPosition);
+            if (positionComparison != 0) {
+                return positionComparison;
+            } else {
+                return listPositionComparator.compare(a, b);
+            }
+        };
+    }
+
     private int findPosition(SortContext context, T element) {
         OrderedElement<? extends T> orderedElement = context.orderedElements.get(element);
         OrderConstraints order = orderedElement.getOrderConstraints();
@@ -170,7 +257,9 @@ public class ElementSorter<T> {
             ElementGraph graph = new ElementGraph();
 
             addVertexes(graph);
-            createImplicitEdges(graph);
+            if (context.configuration.isImplicitListOrder()) {
+                createImplicitEdges(graph);
+            }
             createExplicitEdges(graph);
 
             return graph;
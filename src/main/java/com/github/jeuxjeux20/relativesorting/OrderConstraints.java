@@ -15,11 +15,33 @@ public class OrderConstraints {
     private final int position;
 
     public OrderConstraints(Collection<?> before, Collection<?> after, int position) {
-        this.before = ImmutableList.copyOf(before);
-        this.after = ImmutableList.copyOf(after);
+        this(ImmutableList.copyOf(before), ImmutableList.copyOf(after), position);
+    }
+
+    OrderConstraints(ImmutableList<Object> before, ImmutableList<Object> after, int position) {
+        this.before = before;
+        this.after = after;
         this.position = position;
     }
 
+    /**
+     * Returns an {@link OrderConstraints} with the specified constraints, or {@link #EMPTY}
+     * when there are none.
+     * <p>
+     * To share identical constraints between many elements, use an {@link OrderConstraintsInterner}.
+     *
+     * @param before   the identifiers of the elements this one should be before
+     * @param after    the identifiers of the elements this one should be after
+     * @param position the position
+     * @return the order constraints
+     */
+    public static OrderConstraints of(Collection<?> before, Collection<?> after, int position) {
+        if (before.isEmpty() && after.isEmpty() && position == 0) {
+            return EMPTY;
+        }
+        return new OrderConstraints(before, after, position);
+    }
+
     public ImmutableList<Object> getAfter() {
         return after;
     }
@@ -32,6 +54,29 @@ public class OrderConstraints {
         return position;
     }
 
+    /**
+     * Returns {@code true} if the specified object is an {@link OrderConstraints} with equal
+     * {@linkplain #getBefore() before} and {@linkplain #getAfter() after} identifiers,
+     * and the same {@linkplain #getPosition() position}.
+     *
+     * @param o the object to test for equality
+     * @return {@code true} if the objects are equal, otherwise {@code false}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderConstraints that = (OrderConstraints) o;
+        return position == that.position &&
+               before.equals(that.before) &&
+               after.equals(that.after);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(before, after, position);
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -0,0 +1,81 @@
+package com.github.jeuxjeux20.relativesorting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.Collection;
+
+/**
+ * Creates canonical {@link OrderConstraints} instances, so that elements with identical constraints
+ * share the same instance, and constraints with identical identifier lists share the same lists.
+ * <p>
+ * Constraints without any before, after or position constraint are always {@link OrderConstraints#EMPTY}.
+ * <p>
+ * This class is thread-safe.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public final class OrderConstraintsInterner {
+    private final Interner<OrderConstraints> constraintsInterner;
+    private final Interner<ImmutableList<Object>> identifiersInterner;
+
+    private OrderConstraintsInterner(Interner<OrderConstraints> constraintsInterner,
+                                     Interner<ImmutableList<Object>> identifiersInterner) {
+        this.constraintsInterner = constraintsInterner;
+        this.identifiersInterner = identifiersInterner;
+    }
+
+    /**
+     * Creates a new interner which only weakly references its instances, allowing them
+     * to be garbage collected when they aren't used anymore.
+     *
+     * @return a new weak interner
+     */
+    public static OrderConstraintsInterner newWeakInterner() {
+        return new OrderConstraintsInterner(Interners.newWeakInterner(), Interners.newWeakInterner());
+    }
+
+    /**
+     * Creates a new interner which retains all of its instances until the interner itself
+     * is garbage collected.
+     *
+     * @return a new strong interner
+     */
+    public static OrderConstraintsInterner newStrongInterner() {
+        return new OrderConstraintsInterner(Interners.newStrongInterner(), Interners.newStrongInterner());
+    }
+
+    /**
+     * Returns the canonical {@link OrderConstraints} with the specified constraints.
+     *
+     * @param before   the identifiers of the elements this one should be before
+     * @param after    the identifiers of the elements this one should be after
+     * @param position the position
+     * @return the canonical order constraints
+     */
+    public OrderConstraints intern(Collection<?> before, Collection<?> after, int position) {
+        if (before.isEmpty() && after.isEmpty() && position == 0) {
+            return OrderConstraints.EMPTY;
+        }
+
+        return constraintsInterner.intern(
+                new OrderConstraints(internIdentifiers(before), internIdentifiers(after), position));
+    }
+
+    /**
+     * Returns the canonical {@link OrderConstraints} equal to the specified one.
+     *
+     * @param constraints the order constraints
+     * @return the canonical order constraints
+     */
+    public OrderConstraints intern(OrderConstraints constraints) {
+        return intern(constraints.getBefore(), constraints.getAfter(), constraints.getPosition());
+    }
+
+    private ImmutableList<Object> internIdentifiers(Collection<?> identifiers) {
+        if (identifiers.isEmpty()) {
+            return ImmutableList.of();
+        }
+        return identifiersInterner.intern(ImmutableList.copyOf(identifiers));
+    }
+}
@@ -0,0 +1,277 @@
+package com.github.jeuxjeux20.relativesorting;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import java.util.*;
+
+/**
+ * Represents the changes between two orders of elements, as insertions, removals and moves.
+ * <p>
+ * Elements which are not part of any change keep their relative order, and form the longest
+ * possible such sequence, so the number of moves is minimal.
+ * <p>
+ * The previous order can be turned into the current one by removing all removed and moved elements,
+ * then inserting all inserted and moved elements at their {@linkplain Change#getIndex() index},
+ * in ascending index order (see {@link #applyTo(List)}).
+ * <p>
+ * Elements are compared using {@link Object#equals(Object)}, and should appear only once in each order.
+ *
+ * @param <T> the type of the elements
+ */
+public final class OrderDiff<T> {
+    private final ImmutableList<Change<T>> insertions;
+    private final ImmutableList<Change<T>> removals;
+    private final ImmutableList<Change<T>> moves;
+
+    private OrderDiff(ImmutableList<Change<T>> insertions,
+                      ImmutableList<Change<T>> removals,
+                      ImmutableList<Change<T>> moves) {
+        this.insertions = insertions;
+        this.removals = removals;
+        this.moves = moves;
+    }
+
+    /**
+     * Computes the changes needed to go from the previous order to the current one.
+     *
+     * @param previous the previous order
+     * @param current  the current order
+     * @param <T>      the type of the elements
+     * @return the changes between both orders
+     */
+    public static <T> OrderDiff<T> between(List<? extends T> previous, List<? extends T> current) {
+        Map<T, Integer> previousPositions = new HashMap<>();
+        for (int i = 0; i < previous.size(); i++) {
+            previousPositions.put(previous.get(i), i);
+        }
+
+        ImmutableList.Builder<Change<T>> insertions = ImmutableList.builder();
+        ImmutableList.Builder<Change<T>> moves = ImmutableList.builder();
+
+        // Gather the previous indices of the retained elements, in the current order.
+        int[] retainedIndices = new int[current.size()];
+        int[] retainedPreviousIndices = new int[current.size()];
+        int retainedCount = 0;
+
+        Set<T> currentElements = new HashSet<>();
+        for (int i = 0; i < current.size(); i++) {
+            T element = current.get(i);
+            currentElements.add(element);
+
+            Integer previousIndex = previousPositions.get(element);
+            if (previousIndex == null) {
+                insertions.add(new Change<>(element, -1, i));
+            } else {
+                retainedIndices[retainedCount] = i;
+                retainedPreviousIndices[retainedCount] = previousIndex;
+                retainedCount++;
+            }
+        }
+
+        boolean[] stable = longestIncreasingSubsequence(retainedPreviousIndices, retainedCount);
+        for (int i = 0; i < retainedCount; i++) {
+            if (!stable[i]) {
+                int index = retainedIndices[i];
+                moves.add(new Change<>(current.get(index), retainedPreviousIndices[i], index));
+            }
+        }
+
+        ImmutableList.Builder<Change<T>> removals = ImmutableList.builder();
+        for (int i = 0; i < previous.size(); i++) {
+            T element = previous.get(i);
+            if (!currentElements.contains(element)) {
+                removals.add(new Change<>(element, i, -1));
+            }
+        }
+
+        return new OrderDiff<>(insertions.build(), removals.build(), moves.build());
+    }
+
+    /**
+     * Finds a longest strictly increasing subsequence of the first {@code length} values.
+     *
+     * @return an array telling whether each value is part of the subsequence
+     */
+    private static boolean[] longestIncreasingSubsequence(int[] values, int length) {
+        // tails[k] is the index of the smallest tail of an increasing subsequence of length k + 1.
+        int[] tails = new int[length];
+        int[] predecessors = new int[length];
+        int tailCount = 0;
+
+        for (int i = 0; i < length; i++) {
+            int low = 0;
+            int high = tailCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == tailCount) {
+                tailCount++;
+            }
+        }
+
+        boolean[] result = new boolean[length];
+        for (int i = tailCount > 0 ? tails[tailCount - 1] : -1; i != -1; i = predecessors[i]) {
+            result[i] = true;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the elements which are only in the current order, sorted by their index.
+     *
+     * @return the inserted elements
+     */
+    public ImmutableList<Change<T>> getInsertions() {
+        return insertions;
+    }
+
+    /**
+     * Gets the elements which are only in the previous order, sorted by their previous index.
+     *
+     * @return the removed elements
+     */
+    public ImmutableList<Change<T>> getRemovals() {
+        return removals;
+    }
+
+    /**
+     * Gets the elements which are in both orders, but changed their relative order, sorted by their index.
+     *
+     * @return the moved elements
+     */
+    public ImmutableList<Change<T>> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns {@code true} if both orders are the same.
+     *
+     * @return {@code true} if there are no changes, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return insertions.isEmpty() && removals.isEmpty() && moves.isEmpty();
+    }
+
+    /**
+     * Applies these changes to the specified list, which must have the previous order.
+     * Once applied, the list has the current order.
+     * <p>
+     * Each change is applied using {@link List#remove(int)} and {@link List#add(int, Object)}, which take
+     * linear time on an {@link ArrayList}, so applying all changes takes O(n &middot; changes) time.
+     * Structures that can be patched in constant time per change should use {@link #getInsertions()},
+     * {@link #getRemovals()} and {@link #getMoves()} directly.
+     *
+     * @param list the list with the previous order
+     */
+    public void applyTo(List<T> list) {
+        int[] removedIndices = new int[removals.size() + moves.size()];
+        int removedCount = 0;
+        for (Change<T> removal : removals) {
+            removedIndices[removedCount++] = removal.previousIndex;
+        }
+        for (Change<T> move : moves) {
+            removedIndices[removedCount++] = move.previousIndex;
+        }
+
+        Arrays.sort(removedIndices);
+        for (int i = removedIndices.length - 1; i >= 0; i--) {
+            list.remove(removedIndices[i]);
+        }
+
+        List<Change<T>> added = new ArrayList<>(insertions.size() + moves.size());
+        added.addAll(insertions);
+        added.addAll(moves);
+        added.sort(Comparator.comparingInt(Change::getIndex));
+
+        for (Change<T> change : added) {
+            list.add(change.index, change.element);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("insertions", insertions)
+                .add("removals", removals)
+                .add("moves", moves)
+                .toString();
+    }
+
+    /**
+     * Represents a single change of an element.
+     *
+     * @param <T> the type of the element
+     */
+    public static final class Change<T> {
+        private final T element;
+        private final int previousIndex;
+        private final int index;
+
+        private Change(T element, int previousIndex, int index) {
+            this.element = element;
+            this.previousIndex = previousIndex;
+            this.index = index;
+        }
+
+        /**
+         * Gets the element that changed.
+         *
+         * @return the element
+         */
+        public T getElement() {
+            return element;
+        }
+
+        /**
+         * Gets the index of the element in the previous order, or {@code -1} if it has been inserted.
+         *
+         * @return the previous index, or {@code -1}
+         */
+        public int getPreviousIndex() {
+            return previousIndex;
+        }
+
+        /**
+         * Gets the index of the element in the current order, or {@code -1} if it has been removed.
+         *
+         * @return the current index, or {@code -1}
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Change<?> that = (Change<?>) o;
+            return previousIndex == that.previousIndex &&
+                   index == that.index &&
+                   Objects.equal(element, that.element);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(element, previousIndex, index);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("element", element)
+                    .add("previousIndex", previousIndex)
+                    .add("index", index)
+                    .toString();
+        }
+    }
+}
@@ -17,6 +17,8 @@ public final class SortingConfiguration {
     public static final DuplicateIdentifierSelector DEFAULT_DUPLICATE_IDENTIFIER_SELECTOR =
             DuplicateIdentifierSelector.ARBITRARY;
 
+    public static final boolean DEFAULT_IMPLICIT_LIST_ORDER = true;
+
     /**
      * The default configuration. Default values are specified on every getter.
      */
@@ -25,19 +27,23 @@ public final class SortingConfiguration {
     private final DefaultPositionProvider defaultPosition;
     private final UnresolvableIdentifierHandling unresolvableIdentifierHandling;
     private final DuplicateIdentifierSelector duplicateIdentifierSelector;
+    private final boolean implicitListOrder;
 
     private SortingConfiguration() {
         this(DEFAULT_DEFAULT_POSITION,
                 DEFAULT_UNRESOLVABLE_IDENTIFIER_HANDLING,
-                DEFAULT_DUPLICATE_IDENTIFIER_SELECTOR);
+                DEFAULT_DUPLICATE_IDENTIFIER_SELECTOR,
+                DEFAULT_IMPLICIT_LIST_ORDER);
     }
 
     private SortingConfiguration(DefaultPositionProvider defaultPosition,
                                  UnresolvableIdentifierHandling unresolvableIdentifierHandling,
-                                 DuplicateIdentifierSelector duplicateIdentifierSelector) {
+                                 DuplicateIdentifierSelector duplicateIdentifierSelector,
+                                 boolean implicitListOrder) {
         this.defaultPosition = defaultPosition;
         this.unresolvableIdentifierHandling = unresolvableIdentifierHandling;
         this.duplicateIdentifierSelector = duplicateIdentifierSelector;
+        this.implicitListOrder = implicitListOrder;
     }
 
     /**
@@ -85,10 +91,23 @@ public final class SortingConfiguration {
         return duplicateIdentifierSelector;
     }
 
+    /**
+     * Gets whether elements without any order constraints should keep their relative list order.
+     * When {@code false}, these elements are only ordered by the constraints of other elements.
+     * <p>
+     * The default value is {@code true}.
+     *
+     * @return {@code true} if elements without order constraints keep their list order
+     */
+    public boolean isImplicitListOrder() {
+        return implicitListOrder;
+    }
+
     public static class Builder {
         private DefaultPositionProvider defaultPositionProvider;
         private UnresolvableIdentifierHandling unresolvableIdentifierHandling;
         private DuplicateIdentifierSelector duplicateIdentifierSelector;
+        private boolean implicitListOrder;
 
         public Builder() {
             this(DEFAULT);
@@ -98,6 +117,7 @@ public final class SortingConfiguration {
             this.defaultPositionProvider = configuration.defaultPosition;
             this.unresolvableIdentifierHandling = configuration.unresolvableIdentifierHandling;
             this.duplicateIdentifierSelector = configuration.duplicateIdentifierSelector;
+            this.implicitListOrder = configuration.implicitListOrder;
         }
 
         /**
@@ -129,6 +149,17 @@ public final class SortingConfiguration {
             return this;
         }
 
+        /**
+         * Sets whether elements without any order constraints should keep their relative list order.
+         *
+         * @param implicitListOrder {@code true} if elements without order constraints keep their list order
+         * @return the same builder
+         */
+        public Builder implicitListOrder(boolean implicitListOrder) {
+            this.implicitListOrder = implicitListOrder;
+            return this;
+        }
+
         /**
          * Builds a configuration using the values this builder has.
          *
@@ -137,7 +168,8 @@ public final class SortingConfiguration {
         public SortingConfiguration build() {
             return new SortingConfiguration(defaultPositionProvider,
                     unresolvableIdentifierHandling,
-                    duplicateIdentifierSelector);
+                    duplicateIdentifierSelector,
+                    implicitListOrder);
         }
     }
 }
@@ -0,0 +1,569 @@
+package com.github.jeuxjeux20.relativesorting.external;
+
+import com.github.jeuxjeux20.relativesorting.*;
+import com.github.jeuxjeux20.relativesorting.config.DuplicateIdentifierSelector;
+import com.github.jeuxjeux20.relativesorting.config.SortingConfiguration;
+import com.github.jeuxjeux20.relativesorting.config.UnresolvableIdentifierHandling;
+import com.google.common.io.Closer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Sorts elements using relative constraints, while keeping the identifier table, the edges and
+ * the graph itself in memory-mapped files instead of the heap.
+ * <p>
+ * This is meant for element counts which are too large for {@link ElementSorter}. Elements are read once from
+ * an {@link Iterator}, and the result is given as the indices of the elements in the order they were read.
+ * The order is the same as the one {@link ElementSorter} gives: elements with no constraints keep their
+ * relative list order, and ties are broken by position, then by list order.
+ * <p>
+ * Identifiers are compared using their encoded form (see {@link #ExternalElementSorter(Path, Function)})
+ * instead of {@link Object#equals(Object)}, and elements with a {@code null} identifier can't be referenced.
+ * As the identifiers aren't kept in memory, a {@link DuplicateIdentifierSelector} can't be used:
+ * a {@link DuplicateIdentifiersException} is thrown when two elements have the same identifier.
+ *
+ * @see ElementSorter
+ */
+public final class ExternalElementSorter {
+    private static final int MAX_ELEMENTS = Integer.MAX_VALUE;
+
+    private final Path directory;
+    private final Function<Object, String> identifierEncoder;
+
+    /**
+     * Constructs a new {@link ExternalElementSorter} storing its files in the specified directory, and
+     * encoding identifiers using the specified function.
+     * <p>
+     * Two identifiers are considered equal when their encoded strings are equal, so the encoder must
+     * give distinct strings for identifiers which aren't equal.
+     *
+     * @param directory         the directory to store temporary files in
+     * @param identifierEncoder the function encoding non-null identifiers into strings
+     */
+    public ExternalElementSorter(Path directory, Function<Object, String> identifierEncoder) {
+        this.directory = Objects.requireNonNull(directory);
+        this.identifierEncoder = Objects.requireNonNull(identifierEncoder);
+    }
+
+    /**
+     * Sorts the elements and writes their indices, as big-endian {@code int}s, to the specified file.
+     * <p>
+     * When sorting fails, the file is deleted.
+     *
+     * @param elements      the elements to sort
+     * @param configuration the configuration to use
+     * @param output        the file to write the sorted indices to
+     * @throws IOException when an I/O error occurs
+     * @see #sort(Iterator, SortingConfiguration, IntConsumer)
+     */
+    public void sort(Iterator<? extends OrderedElement<?>> elements, SortingConfiguration configuration,
+                     Path output) throws IOException {
+        try {
+            try (DataOutputStream stream = openOutput(output)) {
+                sort(elements, configuration, index -> {
+                    try {
+                        stream.writeInt(index);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } catch (Throwable e) {
+            try {
+                Files.deleteIfExists(output);
+            } catch (IOException deleteException) {
+                e.addSuppressed(deleteException);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sorts the elements using the default configuration, and gives their indices to the specified consumer.
+     *
+     * @param elements the elements to sort
+     * @param output   the consumer accepting the sorted indices
+     * @throws IOException when an I/O error occurs
+     * @see #sort(Iterator, SortingConfiguration, IntConsumer)
+     */
+    public void sort(Iterator<? extends OrderedElement<?>> elements, IntConsumer output) throws IOException {
+        sort(elements, SortingConfiguration.DEFAULT, output);
+    }
+
+    /**
+     * Sorts the elements, and gives their indices, in the order they were read from the iterator,
+     * to the specified consumer.
+     * <p>
+     * The indices are only given once the whole order is known, so the consumer doesn't receive anything
+     * when sorting fails.
+     *
+     * @param elements      the elements to sort
+     * @param configuration the configuration to use
+     * @param output        the consumer accepting the sorted indices
+     * @throws IOException                     when an I/O error occurs
+     * @throws CycleDetectedException          when an ordering cycle has been detected
+     * @throws DuplicateIdentifiersException   when multiple elements have the same identifier
+     * @throws UnableToResolveElementException when an identifier couldn't be resolved, and the configuration
+     *                                         says to {@linkplain UnresolvableIdentifierHandling#THROW throw}
+     */
+    public void sort(Iterator<? extends OrderedElement<?>> elements, SortingConfiguration configuration,
+                     IntConsumer output) throws IOException {
+        Path workDirectory = Files.createTempDirectory(directory, "relative-sorting");
+
+        try (SortRun run = new SortRun(workDirectory, configuration)) {
+            run.readElements(elements);
+            run.createIdentifierTable();
+            run.createExplicitEdges();
+            run.createAdjacency();
+            run.sortElements();
+            run.writeOrder(output);
+        } catch (Throwable e) {
+            // Failing to delete the files mustn't hide the actual exception.
+            try {
+                deleteDirectory(workDirectory);
+            } catch (IOException deleteException) {
+                e.addSuppressed(deleteException);
+            }
+            throw e;
+        }
+
+        // The sort succeeded, so leftover files shouldn't make it fail.
+        // Mapped files may not be deletable until they are garbage collected on some platforms.
+        try {
+            deleteDirectory(workDirectory);
+        } catch (IOException e) {
+            deleteOnExit(workDirectory);
+        }
+    }
+
+    private static void deleteOnExit(Path directory) {
+        // Files are deleted in reverse order of registration, so the directory goes last.
+        directory.toFile().deleteOnExit();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                file.toFile().deleteOnExit();
+            }
+        } catch (IOException | DirectoryIteratorException ignored) {
+            // The remaining files will be left in the directory.
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private final class SortRun implements Closeable {
+        private final Path directory;
+        private final SortingConfiguration configuration;
+
+        private final Path positionsFile;
+        private final Path identifierOffsetsFile;
+        private final Path identifiersFile;
+        private final Path referencesFile;
+        private final Path edgesFile;
+
+        private final DataOutputStream edgesStream;
+        private long edgeCount;
+        private long referenceCount;
+        private int elementCount;
+
+        private final Closer closer = Closer.create();
+        private MappedIntArray positions;
+        private MappedLongArray identifierOffsets;
+        private FileChannel identifiers;
+        private MappedLongArray identifierTable;
+        private MappedLongArray adjacencyStarts;
+        private MappedIntArray adjacency;
+        private MappedIntArray indegrees;
+        private MappedIntArray order;
+
+        SortRun(Path directory, SortingConfiguration configuration) throws IOException {
+            this.directory = directory;
+            this.configuration = configuration;
+
+            this.positionsFile = directory.resolve("positions");
+            this.identifierOffsetsFile = directory.resolve("identifier-offsets");
+            this.identifiersFile = directory.resolve("identifiers");
+            this.referencesFile = directory.resolve("references");
+            this.edgesFile = directory.resolve("edges");
+
+            this.edgesStream = closer.register(openOutput(edgesFile));
+        }
+
+        /**
+         * Reads all elements, writing their positions, identifiers and references to files,
+         * and creates the implicit edges between elements without constraints.
+         */
+        void readElements(Iterator<? extends OrderedElement<?>> elements) throws IOException {
+            try (DataOutputStream positionsStream = openOutput(positionsFile);
+                 DataOutputStream offsetsStream = openOutput(identifierOffsetsFile);
+                 DataOutputStream identifiersStream = openOutput(identifiersFile);
+                 DataOutputStream referencesStream = openOutput(referencesFile)) {
+                long identifiersSize = 0;
+                int lastImplicitElement = -1;
+
+                while (elements.hasNext()) {
+                    if (elementCount == MAX_ELEMENTS) {
+                        throw new IllegalArgumentException("Too many elements, the maximum is " + MAX_ELEMENTS + ".");
+                    }
+                    int index = elementCount++;
+                    OrderedElement<?> element = elements.next();
+                    OrderConstraints order = element.getOrderConstraints();
+
+                    positionsStream.writeInt(findPosition(element));
+
+                    if (element.getIdentifier() != null) {
+                        offsetsStream.writeLong(identifiersSize);
+                        identifiersSize += writeString(identifiersStream, identifierEncoder.apply(element.getIdentifier()));
+                    } else {
+                        offsetsStream.writeLong(-1);
+                    }
+
+                    if (isImplicitCandidate(order)) {
+                        if (lastImplicitElement != -1 && configuration.isImplicitListOrder()) {
+                            addEdge(lastImplicitElement, index);
+                        }
+                        lastImplicitElement = index;
+                    } else {
+                        writeReferences(referencesStream, index, true, order.getBefore());
+                        writeReferences(referencesStream, index, false, order.getAfter());
+                    }
+                }
+            }
+        }
+
+        private int findPosition(OrderedElement<?> element) {
+            OrderConstraints order = element.getOrderConstraints();
+
+            int position = 0;
+
+            if (order != null) {
+                position = order.getPosition();
+            }
+
+            if (position == 0) {
+                position = configuration.getDefaultPosition().get(element);
+            }
+            return position;
+        }
+
+        private boolean isImplicitCandidate(OrderConstraints order) {
+            return order == null ||
+                   (order.getBefore().isEmpty() && order.getAfter().isEmpty() && order.getPosition() == 0);
+        }
+
+        private void writeReferences(DataOutputStream stream, int index, boolean before,
+                                     Iterable<Object> identifiers) throws IOException {
+            for (Object identifier : identifiers) {
+                stream.writeInt(index);
+                stream.writeBoolean(before);
+                writeString(stream, identifierEncoder.apply(identifier));
+                referenceCount++;
+            }
+        }
+
+        /**
+         * Creates an open-addressing hash table mapping identifiers to element indices.
+         * Each slot contains the element index plus one in its high bits, and the hash in its low bits.
+         */
+        void createIdentifierTable() throws IOException {
+            positions = closer.register(new MappedIntArray(positionsFile, elementCount));
+            identifierOffsets = closer.register(new MappedLongArray(identifierOffsetsFile, elementCount));
+            identifiers = closer.register(FileChannel.open(identifiersFile, StandardOpenOption.READ));
+
+            long capacity = Long.highestOneBit(Math.max(elementCount, 1)) * 4;
+            identifierTable = closer.register(new MappedLongArray(directory.resolve("identifier-table"), capacity));
+
+            try (DataInputStream identifiersStream = openInput(identifiersFile)) {
+                for (int index = 0; index < elementCount; index++) {
+                    if (identifierOffsets.get(index) == -1) {
+                        continue;
+                    }
+                    byte[] identifier = readBytes(identifiersStream);
+                    int hash = hash(identifier);
+
+                    long slot = hash & (capacity - 1);
+                    long value;
+                    while ((value = identifierTable.get(slot)) != 0) {
+                        if ((int) value == hash && Arrays.equals(identifier, readIdentifier(slotIndex(value)))) {
+                            throw new DuplicateIdentifiersException(
+                                    "Multiple elements have the identifier " +
+                                    new String(identifier, StandardCharsets.UTF_8) + ".");
+                        }
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    identifierTable.set(slot, ((long) (index + 1) << 32) | (hash & 0xFFFFFFFFL));
+                }
+            }
+        }
+
+        private int find(byte[] identifier) throws IOException {
+            int hash = hash(identifier);
+            long capacity = identifierTable.length();
+
+            long slot = hash & (capacity - 1);
+            long value;
+            while ((value = identifierTable.get(slot)) != 0) {
+                if ((int) value == hash && Arrays.equals(identifier, readIdentifier(slotIndex(value)))) {
+                    return slotIndex(value);
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+            return -1;
+        }
+
+        private int slotIndex(long value) {
+            return (int) (value >>> 32) - 1;
+        }
+
+        private byte[] readIdentifier(int index) throws IOException {
+            long offset = identifierOffsets.get(index);
+
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+            readFully(identifiers, lengthBuffer, offset);
+
+            ByteBuffer buffer = ByteBuffer.allocate(lengthBuffer.getInt(0));
+            readFully(identifiers, buffer, offset + Integer.BYTES);
+
+            return buffer.array();
+        }
+
+        /**
+         * Resolves the before and after references of all elements, and adds them as edges.
+         */
+        void createExplicitEdges() throws IOException {
+            try (DataInputStream referencesStream = openInput(referencesFile)) {
+                for (long i = 0; i < referenceCount; i++) {
+                    int index = referencesStream.readInt();
+                    boolean before = referencesStream.readBoolean();
+                    byte[] identifier = readBytes(referencesStream);
+
+                    int otherIndex = findOrHandle(identifier);
+                    if (otherIndex == -1) {
+                        continue;
+                    }
+
+                    if (before) {
+                        addEdge(index, otherIndex);
+                    } else {
+                        addEdge(otherIndex, index);
+                    }
+                }
+            }
+
+            edgesStream.close();
+        }
+
+        private int findOrHandle(byte[] identifier) throws IOException {
+            int index = find(identifier);
+
+            if (index != -1) {
+                return index;
+            } else {
+                UnresolvableIdentifierHandling handling = configuration.getUnresolvableIdentifierHandling();
+
+                switch (handling) {
+                    case THROW:
+                        throw new UnableToResolveElementException(new String(identifier, StandardCharsets.UTF_8));
+                    case IGNORE:
+                        return -1;
+                    default:
+                        throw new UnsupportedOperationException("Unknown handling: " + handling);
+                }
+            }
+        }
+
+        private void addEdge(int from, int to) throws IOException {
+            edgesStream.writeInt(from);
+            edgesStream.writeInt(to);
+            edgeCount++;
+        }
+
+        /**
+         * Converts the edge list into a compressed adjacency array, and computes the indegree of every element.
+         */
+        void createAdjacency() throws IOException {
+            MappedIntArray edges = closer.register(new MappedIntArray(edgesFile, edgeCount * 2));
+
+            adjacencyStarts = closer.register(new MappedLongArray(directory.resolve("adjacency-starts"), elementCount + 1L));
+            adjacency = closer.register(new MappedIntArray(directory.resolve("adjacency"), edgeCount));
+            indegrees = closer.register(new MappedIntArray(directory.resolve("indegrees"), elementCount));
+
+            // Count the outgoing edges of every element, shifted by one.
+            for (long i = 0; i < edgeCount; i++) {
+                int from = edges.get(i * 2);
+                int to = edges.get(i * 2 + 1);
+
+                adjacencyStarts.set(from + 1L, adjacencyStarts.get(from + 1L) + 1);
+                indegrees.set(to, indegrees.get(to) + 1);
+            }
+
+            for (long i = 1; i <= elementCount; i++) {
+                adjacencyStarts.set(i, adjacencyStarts.get(i) + adjacencyStarts.get(i - 1));
+            }
+
+            try (MappedLongArray cursors = new MappedLongArray(directory.resolve("adjacency-cursors"), elementCount)) {
+                for (long i = 0; i < elementCount; i++) {
+                    cursors.set(i, adjacencyStarts.get(i));
+                }
+
+                for (long i = 0; i < edgeCount; i++) {
+                    int from = edges.get(i * 2);
+                    int to = edges.get(i * 2 + 1);
+
+                    long cursor = cursors.get(from);
+                    adjacency.set(cursor, to);
+                    cursors.set(from, cursor + 1);
+                }
+            }
+        }
+
+        /**
+         * Sorts the elements topologically, picking the ready element with the lowest position, then
+         * the lowest index, and stores the result in the order array.
+         */
+        void sortElements() throws IOException {
+            order = closer.register(new MappedIntArray(directory.resolve("order"), elementCount));
+            int sortedCount = 0;
+
+            try (MappedLongHeap ready = new MappedLongHeap(directory.resolve("ready"), elementCount)) {
+                for (int i = 0; i < elementCount; i++) {
+                    if (indegrees.get(i) == 0) {
+                        ready.add(sortKey(i));
+                    }
+                }
+
+                while (!ready.isEmpty()) {
+                    int index = (int) ready.poll();
+                    order.set(sortedCount++, index);
+
+                    long end = adjacencyStarts.get(index + 1L);
+                    for (long i = adjacencyStarts.get(index); i < end; i++) {
+                        int successor = adjacency.get(i);
+                        int indegree = indegrees.get(successor) - 1;
+
+                        indegrees.set(successor, indegree);
+                        if (indegree == 0) {
+                            ready.add(sortKey(successor));
+                        }
+                    }
+                }
+            }
+
+            if (sortedCount != elementCount) {
+                throw cycleDetectedException();
+            }
+        }
+
+        void writeOrder(IntConsumer output) {
+            for (long i = 0; i < elementCount; i++) {
+                output.accept(order.get(i));
+            }
+        }
+
+        private long sortKey(int index) {
+            return ((long) positions.get(index) << 32) | index;
+        }
+
+        /**
+         * Finds two elements of a cycle. Every unsorted element has an unsorted predecessor, so walking
+         * through unsorted predecessors eventually reaches an element twice, which is part of a cycle.
+         */
+        private CycleDetectedException cycleDetectedException() throws IOException {
+            try (MappedIntArray predecessors = new MappedIntArray(directory.resolve("predecessors"), elementCount);
+                 MappedIntArray visited = new MappedIntArray(directory.resolve("visited"), elementCount)) {
+                int start = -1;
+                for (int i = 0; i < elementCount; i++) {
+                    if (indegrees.get(i) == 0) {
+                        continue;
+                    }
+                    start = i;
+
+                    long end = adjacencyStarts.get(i + 1L);
+                    for (long j = adjacencyStarts.get(i); j < end; j++) {
+                        int successor = adjacency.get(j);
+                        if (indegrees.get(successor) != 0) {
+                            predecessors.set(successor, i);
+                        }
+                    }
+                }
+
+                int element = start;
+                while (visited.get(element) == 0) {
+                    visited.set(element, 1);
+                    element = predecessors.get(element);
+                }
+
+                return new CycleDetectedException(
+                        "Cycle detected between " + identifierString(predecessors.get(element)) +
+                        " and " + identifierString(element) + ".");
+            }
+        }
+
+        private String identifierString(int index) throws IOException {
+            if (identifierOffsets.get(index) == -1) {
+                return "null";
+            }
+            return new String(readIdentifier(index), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closer.close();
+        }
+    }
+
+    private static DataOutputStream openOutput(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    private static DataInputStream openInput(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    private static long writeString(DataOutputStream stream, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+        return Integer.BYTES + (long) bytes.length;
+    }
+
+    private static byte[] readBytes(DataInputStream stream) throws IOException {
+        byte[] bytes = new byte[stream.readInt()];
+        stream.readFully(bytes);
+        return bytes;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = Arrays.hashCode(bytes);
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.jeuxjeux20.relativesorting.external;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed-length array of primitive values backed by a memory-mapped file.
+ * <p>
+ * The file is mapped in segments, so arrays can be larger than a single {@link MappedByteBuffer}.
+ * Closing the array only closes its channel: the segments stay mapped until they are garbage collected,
+ * so some platforms may refuse to delete the file right after.
+ */
+abstract class MappedArray implements Closeable {
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int elementBytes;
+    private final long length;
+
+    MappedArray(Path file, long length, int elementBytes) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.elementBytes = elementBytes;
+        this.length = length;
+
+        int segmentCount = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            long size = Math.min(length - start, 1L << SEGMENT_SHIFT) * elementBytes;
+
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start * elementBytes, size);
+        }
+    }
+
+    /**
+     * Gets the length of this array, in elements.
+     *
+     * @return the length of this array
+     */
+    long length() {
+        return length;
+    }
+
+    MappedByteBuffer segment(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)];
+    }
+
+    int offset(long index) {
+        return (int) (index & SEGMENT_MASK) * elementBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.jeuxjeux20.relativesorting.external;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * An array of {@code int} values backed by a memory-mapped file.
+ */
+final class MappedIntArray extends MappedArray {
+    MappedIntArray(Path file, long length) throws IOException {
+        super(file, length, Integer.BYTES);
+    }
+
+    int get(long index) {
+        return segment(index).getInt(offset(index));
+    }
+
+    void set(long index, int value) {
+        segment(index).putInt(offset(index), value);
+    }
+}
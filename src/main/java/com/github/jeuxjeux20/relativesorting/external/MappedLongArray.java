@@ -0,0 +1,21 @@
+package com.github.jeuxjeux20.relativesorting.external;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * An array of {@code long} values backed by a memory-mapped file.
+ */
+final class MappedLongArray extends MappedArray {
+    MappedLongArray(Path file, long length) throws IOException {
+        super(file, length, Long.BYTES);
+    }
+
+    long get(long index) {
+        return segment(index).getLong(offset(index));
+    }
+
+    void set(long index, long value) {
+        segment(index).putLong(offset(index), value);
+    }
+}
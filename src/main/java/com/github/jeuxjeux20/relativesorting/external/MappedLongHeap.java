@@ -0,0 +1,82 @@
+package com.github.jeuxjeux20.relativesorting.external;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A binary min-heap of {@code long} values with a fixed capacity, backed by a memory-mapped file.
+ */
+final class MappedLongHeap implements Closeable {
+    private final MappedLongArray values;
+    private long size;
+
+    MappedLongHeap(Path file, long capacity) throws IOException {
+        this.values = new MappedLongArray(file, capacity);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(long value) {
+        if (size == values.length()) {
+            throw new IllegalStateException("The heap is full.");
+        }
+
+        long index = size++;
+        while (index > 0) {
+            long parent = (index - 1) >>> 1;
+            long parentValue = values.get(parent);
+            if (parentValue <= value) {
+                break;
+            }
+
+            values.set(index, parentValue);
+            index = parent;
+        }
+        values.set(index, value);
+    }
+
+    long poll() {
+        if (size == 0) {
+            throw new IllegalStateException("The heap is empty.");
+        }
+
+        long result = values.get(0);
+        long last = values.get(--size);
+
+        long index = 0;
+        long half = size >>> 1;
+        while (index < half) {
+            long child = 2 * index + 1;
+            long childValue = values.get(child);
+
+            long right = child + 1;
+            if (right < size) {
+                long rightValue = values.get(right);
+                if (rightValue < childValue) {
+                    child = right;
+                    childValue = rightValue;
+                }
+            }
+
+            if (last <= childValue) {
+                break;
+            }
+
+            values.set(index, childValue);
+            index = child;
+        }
+        if (size > 0) {
+            values.set(index, last);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        values.close();
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.jeuxjeux20.relativesorting;
+
+import com.github.jeuxjeux20.relativesorting.config.SortingConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElementSorterTest {
+    @Test
+    void sortIntoLayers_chains_unconstrained_elements_with_implicit_list_order() {
+        List<OrderedElement<Integer>> elements = unconstrainedElements(4);
+        ElementSorter<Integer> sorter = new ElementSorter<>(elements::get);
+
+        List<List<Integer>> layers = sorter.sortIntoLayers(values(elements));
+
+        assertEquals(Arrays.asList(
+                singletonList(0), singletonList(1), singletonList(2), singletonList(3)), layers);
+    }
+
+    @Test
+    void sortIntoLayers_puts_unconstrained_elements_in_the_first_layer_without_implicit_list_order() {
+        List<OrderedElement<Integer>> elements = unconstrainedElements(4);
+        ElementSorter<Integer> sorter = new ElementSorter<>(elements::get);
+
+        List<List<Integer>> layers = sorter.sortIntoLayers(values(elements), withoutImplicitListOrder());
+
+        assertEquals(singletonList(Arrays.asList(0, 1, 2, 3)), layers);
+    }
+
+    @Test
+    void sortIntoLayers_respects_edges_and_orders_layers_with_implicit_list_order() {
+        checkRandomLayers(true);
+    }
+
+    @Test
+    void sortIntoLayers_respects_edges_and_orders_layers_without_implicit_list_order() {
+        checkRandomLayers(false);
+    }
+
+    private static void checkRandomLayers(boolean implicitListOrder) {
+        SortingConfiguration configuration = SortingConfiguration.builder()
+                .implicitListOrder(implicitListOrder)
+                .build();
+
+        int sorted = 0;
+
+        for (int seed = 0; seed < 1000; seed++) {
+            Random random = new Random(seed);
+            List<OrderedElement<Integer>> elements = RandomElements.create(random, 25);
+            List<Integer> values = values(elements);
+            ElementSorter<Integer> sorter = new ElementSorter<>(elements::get);
+
+            List<List<Integer>> layers;
+            try {
+                layers = sorter.sortIntoLayers(values, configuration);
+            } catch (CycleDetectedException e) {
+                continue;
+            }
+            sorted++;
+
+            Map<Integer, Integer> layerIndices = new HashMap<>();
+            for (int i = 0; i < layers.size(); i++) {
+                for (Integer value : layers.get(i)) {
+                    assertNull(layerIndices.put(value, i), "Seed " + seed + ": " + value + " appears twice");
+                }
+            }
+            assertEquals(values.size(), layerIndices.size(), "Seed " + seed);
+
+            for (int[] edge : edges(elements, implicitListOrder)) {
+                assertTrue(layerIndices.get(edge[0]) < layerIndices.get(edge[1]),
+                        "Seed " + seed + ": " + edge[0] + " -> " + edge[1] + " in " + layers);
+            }
+
+            Comparator<Integer> layerOrder = Comparator
+                    .comparingInt((Integer value) -> position(elements.get(value)))
+                    .thenComparingInt(value -> value);
+            for (List<Integer> layer : layers) {
+                List<Integer> expected = new ArrayList<>(layer);
+                expected.sort(layerOrder);
+                assertEquals(expected, layer, "Seed " + seed);
+            }
+        }
+
+        assertTrue(sorted > 0);
+    }
+
+    private static List<int[]> edges(List<OrderedElement<Integer>> elements, boolean implicitListOrder) {
+        List<int[]> edges = new ArrayList<>();
+
+        int lastImplicitElement = -1;
+        for (OrderedElement<Integer> element : elements) {
+            int value = element.getElement();
+            OrderConstraints order = element.getOrderConstraints();
+
+            if (order.getBefore().isEmpty() && order.getAfter().isEmpty() && order.getPosition() == 0) {
+                if (implicitListOrder && lastImplicitElement != -1) {
+                    edges.add(new int[]{lastImplicitElement, value});
+                }
+                lastImplicitElement = value;
+            }
+
+            for (Object before : order.getBefore()) {
+                edges.add(new int[]{value, RandomElements.index(before)});
+            }
+            for (Object after : order.getAfter()) {
+                edges.add(new int[]{RandomElements.index(after), value});
+            }
+        }
+        return edges;
+    }
+
+    private static int position(OrderedElement<Integer> element) {
+        int position = element.getOrderConstraints().getPosition();
+        if (position == 0) {
+            position = SortingConfiguration.DEFAULT.getDefaultPosition().get(element);
+        }
+        return position;
+    }
+
+    private static SortingConfiguration withoutImplicitListOrder() {
+        return SortingConfiguration.builder().implicitListOrder(false).build();
+    }
+
+    private static List<Integer> values(List<OrderedElement<Integer>> elements) {
+        return elements.stream().map(OrderedElement::getElement).collect(Collectors.toList());
+    }
+
+    private static List<OrderedElement<Integer>> unconstrainedElements(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new OrderedElement<>(RandomElements.identifier(i), i, OrderConstraints.EMPTY))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.jeuxjeux20.relativesorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures the heap retained by many elements with identical constraints, with and without
+ * an {@link OrderConstraintsInterner}.
+ * <p>
+ * This isn't part of the test suite, as the measurement depends on the garbage collector honoring
+ * {@link System#gc()}. Run its {@code main} method using the test classpath.
+ */
+public final class OrderConstraintsInternerBenchmark {
+    private static final int ELEMENT_COUNT = 500_000;
+
+    private OrderConstraintsInternerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        List<Object> identifiers = Arrays.asList("first", "second", "third");
+
+        long baseline = usedMemory();
+        OrderConstraints[] copied = new OrderConstraints[ELEMENT_COUNT];
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            copied[i] = new OrderConstraints(Collections.emptyList(), new ArrayList<>(identifiers), 0);
+        }
+        long copiedSize = usedMemory() - baseline;
+
+        OrderConstraintsInterner interner = OrderConstraintsInterner.newStrongInterner();
+        baseline = usedMemory();
+        OrderConstraints[] interned = new OrderConstraints[ELEMENT_COUNT];
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            interned[i] = interner.intern(Collections.emptyList(), new ArrayList<>(identifiers), 0);
+        }
+        long internedSize = usedMemory() - baseline;
+
+        System.out.printf("%d elements with identical constraints%n", ELEMENT_COUNT);
+        System.out.printf("  copied:   %,d bytes (%.1f bytes per element)%n",
+                copiedSize, (double) copiedSize / ELEMENT_COUNT);
+        System.out.printf("  interned: %,d bytes (%.1f bytes per element)%n",
+                internedSize, (double) internedSize / ELEMENT_COUNT);
+
+        // Keep both arrays reachable until both measurements are done.
+        if (copied.length + interned.length == 0) {
+            System.out.println();
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.jeuxjeux20.relativesorting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderConstraintsInternerTest {
+    private static final int ELEMENT_COUNT = 1000;
+
+    @Test
+    void equal_constraints_are_equal_and_have_the_same_hash_code() {
+        OrderConstraints a = new OrderConstraints(Arrays.asList("x", "y"), Collections.singletonList("z"), 3);
+        OrderConstraints b = new OrderConstraints(new ArrayList<>(Arrays.asList("x", "y")),
+                new LinkedList<>(Collections.singletonList("z")), 3);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+
+    @Test
+    void different_constraints_are_not_equal() {
+        OrderConstraints constraints = new OrderConstraints(Collections.singletonList("x"), Collections.emptyList(), 0);
+
+        assertNotEquals(constraints, new OrderConstraints(Collections.emptyList(), Collections.singletonList("x"), 0));
+        assertNotEquals(constraints, new OrderConstraints(Collections.singletonList("x"), Collections.emptyList(), 1));
+        assertNotEquals(constraints, new OrderConstraints(Collections.singletonList("y"), Collections.emptyList(), 0));
+    }
+
+    @Test
+    void of_returns_EMPTY_without_constraints() {
+        assertSame(OrderConstraints.EMPTY, OrderConstraints.of(Collections.emptyList(), Collections.emptyList(), 0));
+        assertNotSame(OrderConstraints.EMPTY, OrderConstraints.of(Collections.emptyList(), Collections.emptyList(), 1));
+    }
+
+    @Test
+    void intern_returns_EMPTY_without_constraints() {
+        OrderConstraintsInterner interner = OrderConstraintsInterner.newStrongInterner();
+
+        assertSame(OrderConstraints.EMPTY, interner.intern(Collections.emptyList(), Collections.emptyList(), 0));
+        assertSame(OrderConstraints.EMPTY, interner.intern(
+                new OrderConstraints(Collections.emptyList(), Collections.emptyList(), 0)));
+    }
+
+    @Test
+    void intern_shares_equal_constraints() {
+        OrderConstraintsInterner interner = OrderConstraintsInterner.newStrongInterner();
+
+        OrderConstraints first = interner.intern(Collections.emptyList(), Arrays.asList("a", "b"), 0);
+        OrderConstraints second = interner.intern(Collections.emptyList(), new ArrayList<>(Arrays.asList("a", "b")), 0);
+        OrderConstraints positionOnly = interner.intern(Collections.emptyList(), Collections.emptyList(), 5);
+
+        assertSame(first, second);
+        assertSame(positionOnly, interner.intern(Collections.emptyList(), Collections.emptyList(), 5));
+        assertSame(first, interner.intern(new OrderConstraints(Collections.emptyList(), Arrays.asList("a", "b"), 0)));
+    }
+
+    @Test
+    void intern_shares_identifier_lists_between_before_and_after() {
+        OrderConstraintsInterner interner = OrderConstraintsInterner.newStrongInterner();
+
+        OrderConstraints before = interner.intern(Arrays.asList("a", "b"), Collections.emptyList(), 0);
+        OrderConstraints after = interner.intern(Collections.emptyList(), Arrays.asList("a", "b"), 0);
+        OrderConstraints both = interner.intern(Arrays.asList("a", "b"), Arrays.asList("a", "b"), 1);
+
+        assertNotSame(before, after);
+        assertSame(before.getBefore(), after.getAfter());
+        assertSame(before.getBefore(), both.getBefore());
+        assertSame(before.getBefore(), both.getAfter());
+    }
+
+    @Test
+    void interning_shares_instances_between_elements() {
+        List<Object> identifiers = Arrays.asList("first", "second", "third");
+
+        OrderConstraints[] copied = new OrderConstraints[ELEMENT_COUNT];
+        OrderConstraints[] interned = new OrderConstraints[ELEMENT_COUNT];
+        OrderConstraintsInterner interner = OrderConstraintsInterner.newStrongInterner();
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            copied[i] = new OrderConstraints(Collections.emptyList(), new ArrayList<>(identifiers), 0);
+            interned[i] = interner.intern(Collections.emptyList(), new ArrayList<>(identifiers), 0);
+        }
+
+        assertEquals(ELEMENT_COUNT, distinctInstances(copied));
+        assertEquals(1, distinctInstances(interned));
+
+        OrderConstraints positioned = interner.intern(Collections.emptyList(), identifiers, 1);
+        assertSame(interned[0].getAfter(), positioned.getAfter());
+    }
+
+    private static int distinctInstances(Object[] objects) {
+        Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        instances.addAll(Arrays.asList(objects));
+        return instances.size();
+    }
+}
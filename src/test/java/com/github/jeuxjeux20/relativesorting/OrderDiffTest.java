@@ -0,0 +1,102 @@
+package com.github.jeuxjeux20.relativesorting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDiffTest {
+    @Test
+    void identical_orders_have_no_changes() {
+        List<String> order = Arrays.asList("a", "b", "c");
+
+        assertTrue(OrderDiff.between(order, order).isEmpty());
+    }
+
+    @Test
+    void reports_insertions_removals_and_moves() {
+        List<String> previous = Arrays.asList("a", "b", "c", "d");
+        List<String> current = Arrays.asList("d", "a", "c", "e");
+
+        OrderDiff<String> diff = OrderDiff.between(previous, current);
+
+        assertEquals(1, diff.getInsertions().size());
+        assertEquals("e", diff.getInsertions().get(0).getElement());
+        assertEquals(-1, diff.getInsertions().get(0).getPreviousIndex());
+        assertEquals(3, diff.getInsertions().get(0).getIndex());
+
+        assertEquals(1, diff.getRemovals().size());
+        assertEquals("b", diff.getRemovals().get(0).getElement());
+        assertEquals(1, diff.getRemovals().get(0).getPreviousIndex());
+        assertEquals(-1, diff.getRemovals().get(0).getIndex());
+
+        assertEquals(1, diff.getMoves().size());
+        assertEquals("d", diff.getMoves().get(0).getElement());
+        assertEquals(3, diff.getMoves().get(0).getPreviousIndex());
+        assertEquals(0, diff.getMoves().get(0).getIndex());
+    }
+
+    @Test
+    void applyTo_turns_the_previous_order_into_the_current_one() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < 5000; i++) {
+            List<Integer> previous = randomOrder(random);
+            List<Integer> current = randomOrder(random);
+
+            List<Integer> patched = new ArrayList<>(previous);
+            OrderDiff.between(previous, current).applyTo(patched);
+
+            assertEquals(current, patched, "Previous " + previous);
+        }
+    }
+
+    @Test
+    void moves_are_minimal() {
+        Random random = new Random(1);
+
+        for (int i = 0; i < 5000; i++) {
+            List<Integer> previous = randomOrder(random);
+            List<Integer> current = randomOrder(random);
+
+            int[] retainedPreviousIndices = current.stream()
+                    .filter(previous::contains)
+                    .mapToInt(previous::indexOf)
+                    .toArray();
+
+            OrderDiff<Integer> diff = OrderDiff.between(previous, current);
+
+            assertEquals(retainedPreviousIndices.length - longestIncreasingSubsequenceLength(retainedPreviousIndices),
+                    diff.getMoves().size(), "Previous " + previous + ", current " + current);
+        }
+    }
+
+    private static List<Integer> randomOrder(Random random) {
+        int count = random.nextInt(20);
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(4) != 0) {
+                order.add(i);
+            }
+        }
+        Collections.shuffle(order, random);
+        return order;
+    }
+
+    private static int longestIncreasingSubsequenceLength(int[] values) {
+        int[] lengths = new int[values.length];
+        int longest = 0;
+        for (int i = 0; i < values.length; i++) {
+            lengths[i] = 1;
+            for (int j = 0; j < i; j++) {
+                if (values[j] < values[i]) {
+                    lengths[i] = Math.max(lengths[i], lengths[j] + 1);
+                }
+            }
+            longest = Math.max(longest, lengths[i]);
+        }
+        return longest;
+    }
+}
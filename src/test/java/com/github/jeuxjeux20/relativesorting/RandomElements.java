@@ -0,0 +1,58 @@
+package com.github.jeuxjeux20.relativesorting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates random ordered elements for tests. The element of each {@link OrderedElement} is its
+ * list index, and its identifier is given by {@link #identifier(int)}.
+ * <p>
+ * References mostly follow the list order, but sometimes go against it, so that some of the
+ * generated graphs contain cycles.
+ */
+public final class RandomElements {
+    private RandomElements() {
+    }
+
+    public static String identifier(int index) {
+        return "e" + index;
+    }
+
+    public static int index(Object identifier) {
+        return Integer.parseInt(((String) identifier).substring(1));
+    }
+
+    public static List<OrderedElement<Integer>> create(Random random, int maxCount) {
+        int count = 1 + random.nextInt(maxCount);
+
+        List<OrderedElement<Integer>> elements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Object> before = new ArrayList<>();
+            List<Object> after = new ArrayList<>();
+            int position = 0;
+
+            if (random.nextInt(3) == 0) {
+                int referenceCount = random.nextInt(3);
+                for (int j = 0; j < referenceCount; j++) {
+                    int other = random.nextInt(count);
+                    if (other == i) {
+                        continue;
+                    }
+                    boolean forward = random.nextInt(4) != 0 ? other > i : other < i;
+                    if (forward) {
+                        before.add(identifier(other));
+                    } else {
+                        after.add(identifier(other));
+                    }
+                }
+                if (random.nextInt(3) == 0) {
+                    position = random.nextInt(5) - 2;
+                }
+            }
+
+            elements.add(new OrderedElement<>(identifier(i), i, OrderConstraints.of(before, after, position)));
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.jeuxjeux20.relativesorting.external;
+
+import com.github.jeuxjeux20.relativesorting.*;
+import com.github.jeuxjeux20.relativesorting.config.SortingConfiguration;
+import com.github.jeuxjeux20.relativesorting.config.UnresolvableIdentifierHandling;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalElementSorterTest {
+    private static final int SEED_COUNT = 300;
+
+    private Path directory;
+    private ExternalElementSorter sorter;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("external-element-sorter-test");
+        sorter = new ExternalElementSorter(directory, String::valueOf);
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void sorts_like_ElementSorter_on_random_graphs() throws IOException {
+        checkRandomGraphs(SortingConfiguration.DEFAULT);
+    }
+
+    @Test
+    void sorts_like_ElementSorter_on_random_graphs_without_implicit_list_order() throws IOException {
+        checkRandomGraphs(SortingConfiguration.builder().implicitListOrder(false).build());
+    }
+
+    private void checkRandomGraphs(SortingConfiguration configuration) throws IOException {
+        int cycles = 0;
+
+        for (int seed = 0; seed < SEED_COUNT; seed++) {
+            Random random = new Random(seed);
+            List<OrderedElement<Integer>> elements = RandomElements.create(random, 30);
+            List<Integer> values = elements.stream().map(OrderedElement::getElement).collect(Collectors.toList());
+            ElementSorter<Integer> elementSorter = new ElementSorter<>(elements::get);
+
+            List<Integer> expected;
+            try {
+                expected = elementSorter.sort(values, configuration);
+            } catch (CycleDetectedException e) {
+                assertThrows(CycleDetectedException.class, () -> sort(elements, configuration), "Seed " + seed);
+                cycles++;
+                continue;
+            }
+
+            assertEquals(expected, sort(elements, configuration), "Seed " + seed);
+        }
+
+        // Make sure both outcomes are actually exercised.
+        assertTrue(cycles > 0 && cycles < SEED_COUNT);
+    }
+
+    @Test
+    void sorts_an_empty_iterator() throws IOException {
+        assertEquals(emptyList(), sort(emptyList()));
+    }
+
+    @Test
+    void keeps_list_order_without_constraints() throws IOException {
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                element(0, OrderConstraints.EMPTY),
+                element(1, OrderConstraints.EMPTY),
+                element(2, OrderConstraints.EMPTY));
+
+        assertEquals(Arrays.asList(0, 1, 2), sort(elements));
+    }
+
+    @Test
+    void throws_on_duplicate_identifiers() {
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                new OrderedElement<>("same", 0, OrderConstraints.EMPTY),
+                new OrderedElement<>("same", 1, OrderConstraints.EMPTY));
+
+        assertThrows(DuplicateIdentifiersException.class, () -> sort(elements));
+    }
+
+    @Test
+    void throws_on_unresolvable_identifier_by_default() {
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                element(0, OrderConstraints.EMPTY),
+                element(1, new OrderConstraints(singletonList("missing"), emptyList(), 0)));
+
+        UnableToResolveElementException exception =
+                assertThrows(UnableToResolveElementException.class, () -> sort(elements));
+        assertEquals("missing", exception.getUnresolved());
+    }
+
+    @Test
+    void ignores_unresolvable_identifier_when_configured() throws IOException {
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                element(0, OrderConstraints.EMPTY),
+                element(1, new OrderConstraints(singletonList("missing"), singletonList("e0"), 0)));
+        SortingConfiguration configuration = SortingConfiguration.builder()
+                .unresolvableIdentifierHandling(UnresolvableIdentifierHandling.IGNORE)
+                .build();
+
+        List<Integer> result = new ArrayList<>();
+        sorter.sort(elements.iterator(), configuration, result::add);
+
+        assertEquals(Arrays.asList(0, 1), result);
+    }
+
+    @Test
+    void throws_on_cycle_without_partial_output() {
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                element(0, OrderConstraints.EMPTY),
+                element(1, new OrderConstraints(singletonList("e2"), emptyList(), 0)),
+                element(2, new OrderConstraints(singletonList("e1"), emptyList(), 0)));
+
+        List<Integer> result = new ArrayList<>();
+        assertThrows(CycleDetectedException.class,
+                () -> sorter.sort(elements.iterator(), result::add));
+        assertEquals(emptyList(), result);
+    }
+
+    @Test
+    void cycle_message_names_elements_of_the_cycle() {
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                element(0, new OrderConstraints(emptyList(), singletonList("e1"), 0)),
+                element(1, new OrderConstraints(singletonList("e2"), emptyList(), 0)),
+                element(2, new OrderConstraints(singletonList("e1"), emptyList(), 0)));
+
+        CycleDetectedException exception = assertThrows(CycleDetectedException.class, () -> sort(elements));
+        assertTrue(exception.getMessage().contains("e1"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("e2"), exception.getMessage());
+        assertFalse(exception.getMessage().contains("e0"), exception.getMessage());
+    }
+
+    @Test
+    void deletes_the_output_file_on_failure() {
+        Path output = directory.resolve("output");
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                element(0, OrderConstraints.EMPTY),
+                element(1, new OrderConstraints(singletonList("e2"), emptyList(), 0)),
+                element(2, new OrderConstraints(singletonList("e1"), emptyList(), 0)));
+
+        assertThrows(CycleDetectedException.class,
+                () -> sorter.sort(elements.iterator(), SortingConfiguration.DEFAULT, output));
+        assertFalse(Files.exists(output));
+    }
+
+    @Test
+    void writes_indices_to_the_output_file() throws IOException {
+        Path output = directory.resolve("output");
+        List<OrderedElement<Integer>> elements = Arrays.asList(
+                element(0, OrderConstraints.EMPTY),
+                element(1, new OrderConstraints(singletonList("e0"), emptyList(), 0)));
+
+        sorter.sort(elements.iterator(), SortingConfiguration.DEFAULT, output);
+
+        assertArrayEquals(new byte[]{0, 0, 0, 1, 0, 0, 0, 0}, Files.readAllBytes(output));
+    }
+
+    @Test
+    void removes_its_temporary_files() throws IOException {
+        sort(Arrays.asList(element(0, OrderConstraints.EMPTY), element(1, OrderConstraints.EMPTY)));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private List<Integer> sort(List<OrderedElement<Integer>> elements) throws IOException {
+        return sort(elements, SortingConfiguration.DEFAULT);
+    }
+
+    private List<Integer> sort(List<OrderedElement<Integer>> elements,
+                               SortingConfiguration configuration) throws IOException {
+        List<Integer> result = new ArrayList<>();
+        sorter.sort(elements.iterator(), configuration, result::add);
+        return result;
+    }
+
+    private static OrderedElement<Integer> element(int value, OrderConstraints constraints) {
+        return new OrderedElement<>(RandomElements.identifier(value), value, constraints);
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.jeuxjeux20.relativesorting.external;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLongHeapTest {
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("mapped-long-heap-test", null);
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void polls_values_in_ascending_order() throws IOException {
+        Random random = new Random(0);
+        long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            // Include duplicates and negative values.
+            values[i] = random.nextInt(200) - 100 + ((long) random.nextInt(3) << 40);
+        }
+
+        long[] polled = new long[values.length];
+        try (MappedLongHeap heap = new MappedLongHeap(file, values.length)) {
+            for (long value : values) {
+                heap.add(value);
+            }
+            for (int i = 0; i < polled.length; i++) {
+                polled[i] = heap.poll();
+            }
+            assertTrue(heap.isEmpty());
+        }
+
+        Arrays.sort(values);
+        assertArrayEquals(values, polled);
+    }
+
+    @Test
+    void sifts_down_to_the_smallest_child() throws IOException {
+        try (MappedLongHeap heap = new MappedLongHeap(file, 8)) {
+            for (long value : new long[]{1, 5, 2, 6, 7, 3, 4}) {
+                heap.add(value);
+            }
+
+            // Removing the root moves the last value to the top, which has to go down the right side.
+            assertEquals(1, heap.poll());
+            assertEquals(2, heap.poll());
+            assertEquals(3, heap.poll());
+            assertEquals(4, heap.poll());
+            assertEquals(5, heap.poll());
+            assertEquals(6, heap.poll());
+            assertEquals(7, heap.poll());
+        }
+    }
+
+    @Test
+    void interleaves_adds_and_polls() throws IOException {
+        try (MappedLongHeap heap = new MappedLongHeap(file, 4)) {
+            heap.add(3);
+            heap.add(1);
+            assertEquals(1, heap.poll());
+            heap.add(2);
+            heap.add(0);
+            assertEquals(0, heap.poll());
+            assertEquals(2, heap.poll());
+            assertEquals(3, heap.poll());
+            assertTrue(heap.isEmpty());
+        }
+    }
+
+    @Test
+    void throws_when_full_or_empty() throws IOException {
+        try (MappedLongHeap heap = new MappedLongHeap(file, 1)) {
+            assertThrows(IllegalStateException.class, heap::poll);
+            heap.add(1);
+            assertThrows(IllegalStateException.class, () -> heap.add(2));
+        }
+    }
+}